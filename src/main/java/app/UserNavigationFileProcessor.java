@@ -21,7 +21,8 @@ public class UserNavigationFileProcessor {
     /**
      * Main entry point for processing user data file. Validates arguments and prints path visit count results.
      *
-     * @param args for processing. Arguments should come in order of: resultSize, pathSize, path, delimiter(optional).
+     * @param args for processing. Arguments should come in order of: resultSize, pathSize, path, delimiter(optional),
+     *             sampleRate(optional).
      */
     public static void main(String[] args) {
         LOG.info("Starting UserNavigationFileProcessor");
@@ -35,7 +36,7 @@ public class UserNavigationFileProcessor {
 
         // Parse file into user entry pairs.
         List<UserNavigationEntry> userNavigationEntries =
-                parseUserNavigationFile(arguments.dataPath(), arguments.dataDelimiter());
+                parseUserNavigationFile(arguments.dataPath(), arguments.dataDelimiter(), arguments.sampleRate());
         // Validate parse result.
         if (userNavigationEntries == null) {
             System.exit(1);
@@ -47,15 +48,27 @@ public class UserNavigationFileProcessor {
 
         // Load path visit counts.
         List<PathVisitCount> pathVisitCounts =
-                UserNavigationUtil.getPathVisitCountsFromEntries(userNavigationEntries, arguments.pathSize(), arguments.resultSize());
+                UserNavigationUtil.getPathVisitCountsFromLists(UserNavigationUtil.getUserNavigationLists(userNavigationEntries),
+                        arguments.pathSize(), arguments.resultSize(), arguments.sampleRate());
+        boolean sampled = arguments.sampleRate() < UserNavigationUtil.FULL_SAMPLE_RATE;
 
         // Build output string and print.
         StringBuilder output = new StringBuilder();
         output.append("\nVisit Count Results\n");
+        if (sampled) {
+            output.append("Estimated from a ");
+            output.append(arguments.sampleRate());
+            output.append(" sample of users with 95% confidence intervals\n");
+        }
         pathVisitCounts.forEach(pathVisitCount -> {
             output.append("Visited ");
-            output.append(pathVisitCount.visitCount());
-            output.append(" time(s)");
+            if (sampled) {
+                output.append(String.format("~%.0f time(s) [%.0f - %.0f]", pathVisitCount.estimatedVisitCount(),
+                        pathVisitCount.estimatedVisitCountLower(), pathVisitCount.estimatedVisitCountUpper()));
+            } else {
+                output.append(pathVisitCount.visitCount());
+                output.append(" time(s)");
+            }
             output.append(" : ");
             output.append(pathVisitCount.path());
             output.append("\n");
@@ -73,9 +86,9 @@ public class UserNavigationFileProcessor {
      */
     private static ProcessorArguments validateAndExtractArguments(String[] args) {
         // Validate and extract arguments
-        if (args.length < 3 || args.length > 4) {
+        if (args.length < 3 || args.length > 5) {
             LOG.log(Level.SEVERE, "Invalid program arguments.\n" +
-                    "Expected: java -jar pathfinder.jar <resultSize> <pathSize> <path> <delimiter(optional)>");
+                    "Expected: java -jar pathfinder.jar <resultSize> <pathSize> <path> <delimiter(optional)> <sampleRate(optional)>");
             return null;
         }
 
@@ -84,7 +97,7 @@ public class UserNavigationFileProcessor {
             resultSize = Integer.parseInt(args[0]);
         } catch (NumberFormatException e) {
             LOG.log(Level.SEVERE, "Invalid program arguments. Result size is not an integer. " +
-                    "Expected: java -jar pathfinder.jar <resultSize> <pathSize> <path> <delimiter(optional)>");
+                    "Expected: java -jar pathfinder.jar <resultSize> <pathSize> <path> <delimiter(optional)> <sampleRate(optional)>");
             return null;
         }
 
@@ -93,30 +106,46 @@ public class UserNavigationFileProcessor {
             pathSize = Integer.parseInt(args[1]);
         } catch (NumberFormatException e) {
             LOG.log(Level.SEVERE, "Invalid program arguments. Path size is not an integer. " +
-                    "Expected: java -jar pathfinder.jar <resultSize> <pathSize> <path> <delimiter(optional)>");
+                    "Expected: java -jar pathfinder.jar <resultSize> <pathSize> <path> <delimiter(optional)> <sampleRate(optional)>");
             return null;
         }
 
         String path = args[2];
 
         String delimiter = null;
-        if (args.length == 4) {
+        if (args.length >= 4) {
             delimiter = args[3];
         }
 
-        return new ProcessorArguments().resultSize(resultSize).pathSize(pathSize).dataPath(path).dataDelimiter(delimiter);
+        double sampleRate = UserNavigationUtil.FULL_SAMPLE_RATE;
+        if (args.length == 5) {
+            try {
+                sampleRate = Double.parseDouble(args[4]);
+            } catch (NumberFormatException e) {
+                sampleRate = Double.NaN;
+            }
+            if (!(sampleRate > 0 && sampleRate <= UserNavigationUtil.FULL_SAMPLE_RATE)) {
+                LOG.log(Level.SEVERE, "Invalid program arguments. Sample rate is not a number greater than 0 and at most 1. " +
+                        "Expected: java -jar pathfinder.jar <resultSize> <pathSize> <path> <delimiter(optional)> <sampleRate(optional)>");
+                return null;
+            }
+        }
+
+        return new ProcessorArguments().resultSize(resultSize).pathSize(pathSize).dataPath(path).dataDelimiter(delimiter)
+                .sampleRate(sampleRate);
     }
 
     /**
      * Parses given file with given delimiter and returns list of user navigation entries from file.
      *
-     * @param path      the path of the data file to process.
-     * @param delimiter the delimiter to parse each data line with.
+     * @param path       the path of the data file to process.
+     * @param delimiter  the delimiter to parse each data line with.
+     * @param sampleRate the fraction of users to include.
      * @return list of user navigation entries.
      */
-    private static List<UserNavigationEntry> parseUserNavigationFile(String path, String delimiter) {
+    private static List<UserNavigationEntry> parseUserNavigationFile(String path, String delimiter, double sampleRate) {
         try {
-            return UserNavigationUtil.parseUserNavigationFile(path, delimiter);
+            return UserNavigationUtil.parseUserNavigationFile(path, delimiter, sampleRate);
         } catch (IOException e) {
             LOG.log(Level.SEVERE, "Failed to parse data file.", e);
             return null;
@@ -134,6 +163,7 @@ public class UserNavigationFileProcessor {
         private int pathSize;
         private String dataPath;
         private String dataDelimiter;
+        private double sampleRate;
 
         /**
          * @return current resultSize.
@@ -163,6 +193,13 @@ public class UserNavigationFileProcessor {
             return this.dataDelimiter;
         }
 
+        /**
+         * @return current sampleRate.
+         */
+        public double sampleRate() {
+            return this.sampleRate;
+        }
+
         /**
          * @param resultSize resultSize to set.
          * @return this instance of ProcessorArguments.
@@ -198,6 +235,15 @@ public class UserNavigationFileProcessor {
             this.dataDelimiter = dataDelimiter;
             return this;
         }
+
+        /**
+         * @param sampleRate sampleRate to set.
+         * @return this instance of ProcessorArguments.
+         */
+        public ProcessorArguments sampleRate(final double sampleRate) {
+            this.sampleRate = sampleRate;
+            return this;
+        }
     }
 
 }
@@ -24,6 +24,16 @@ import java.util.stream.Stream;
  */
 public class UserNavigationUtil {
 
+    /**
+     * Sample rate which includes every user.
+     */
+    public static final double FULL_SAMPLE_RATE = 1.0;
+
+    /**
+     * Standard normal quantile used for the 95% confidence interval of sampled visit count estimates.
+     */
+    private static final double CONFIDENCE_Z = 1.96;
+
     /**
      * Given user navigation entries and the size of paths to process this method will return a list of path visit counts
      * in descending order from most visited to least visited.
@@ -51,6 +61,24 @@ public class UserNavigationUtil {
      * in descending order from most visited to least visited.
      */
     public static List<PathVisitCount> getPathVisitCountsFromLists(List<UserNavigationList> userNavigationLists, int pathSize, int resultSize) {
+        return getPathVisitCountsFromLists(userNavigationLists, pathSize, resultSize, FULL_SAMPLE_RATE);
+    }
+
+    /**
+     * Given user navigation lists sampled at the given sample rate and the size of paths to process this method will
+     * return a list of path visit counts in descending order from most visited to least visited. Each path visit count
+     * includes a visit count estimate scaled by the sample rate and its 95% confidence interval.
+     *
+     * @param userNavigationLists the list of sampled user navigation lists to process.
+     * @param pathSize            the size of navigation paths to include in processing.
+     * @param resultSize          the max size of the results to return.
+     * @param sampleRate          the fraction of users the lists were sampled with, greater than 0 and at most 1.
+     * @return the list of path visit counts
+     * @see List
+     * in descending order from most visited to least visited.
+     */
+    public static List<PathVisitCount> getPathVisitCountsFromLists(List<UserNavigationList> userNavigationLists, int pathSize, int resultSize, double sampleRate) {
+        validateSampleRate(sampleRate);
         final Map<String, PathVisitCount> pathVisitCountMap = new HashMap<>();
         userNavigationLists.stream()
                 .map(userNavigationList -> userNavigationList.getSequentialNavigationPaths(pathSize))
@@ -66,9 +94,28 @@ public class UserNavigationUtil {
         return pathVisitCountMap.values().stream()
                 .sorted((o1, o2) -> o2.visitCount() - o1.visitCount())
                 .limit(resultSize)
+                .map(pathVisitCount -> estimateVisitCount(pathVisitCount, sampleRate))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Sets the estimated visit count of the given path visit count and its 95% confidence interval. Each sampled user
+     * is included independently with probability sampleRate, so the sampled visit count is binomial and the estimate
+     * is the visit count divided by the sample rate. The lower bound is never less than the sampled visit count.
+     *
+     * @param pathVisitCount the path visit count to estimate.
+     * @param sampleRate     the fraction of users the visit count was taken from.
+     * @return the given path visit count.
+     */
+    private static PathVisitCount estimateVisitCount(PathVisitCount pathVisitCount, double sampleRate) {
+        double visitCount = pathVisitCount.visitCount();
+        double estimate = visitCount / sampleRate;
+        double margin = CONFIDENCE_Z * Math.sqrt(visitCount * (1 - sampleRate)) / sampleRate;
+        return pathVisitCount.estimatedVisitCount(estimate)
+                .estimatedVisitCountLower(Math.max(visitCount, estimate - margin))
+                .estimatedVisitCountUpper(estimate + margin);
+    }
+
     /**
      * Given user navigation entries this method will group the entries by user into user navigation lists.
      *
@@ -76,7 +123,7 @@ public class UserNavigationUtil {
      * @return list of user navigation lists.
      * @see List
      */
-    private static List<UserNavigationList> getUserNavigationLists(List<UserNavigationEntry> userNavigationEntries) {
+    public static List<UserNavigationList> getUserNavigationLists(List<UserNavigationEntry> userNavigationEntries) {
         Map<String, UserNavigationList> userNavigationListMap = new HashMap<>();
         userNavigationEntries.forEach(userNavigationEntry -> {
             UserNavigationList userNavigationList = userNavigationListMap.get(userNavigationEntry.userKey());
@@ -89,6 +136,25 @@ public class UserNavigationUtil {
         return new ArrayList<>(userNavigationListMap.values());
     }
 
+    /**
+     * Given user navigation entries and a user sample rate this method will return the entries of the sampled users.
+     * Users are sampled the same way as parseUserNavigationFile samples them. Entries without a user key could not be
+     * parsed and are always kept, the same as malformed lines are kept by parseUserNavigationFile.
+     *
+     * @param userNavigationEntries the list of user navigation entries to sample.
+     * @param sampleRate            the fraction of users to include, greater than 0 and at most 1.
+     * @return list of sampled user navigation entries.
+     * @see List
+     */
+    public static List<UserNavigationEntry> sampleUserNavigationEntries(List<UserNavigationEntry> userNavigationEntries, double sampleRate) {
+        validateSampleRate(sampleRate);
+        final long sampleThreshold = getSampleThreshold(sampleRate);
+        return userNavigationEntries.stream()
+                .filter(entry -> entry.userKey() == null
+                        || isUserSampled(entry.userKey(), 0, entry.userKey().length(), sampleThreshold))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Given a path to a data file and a data delimiter this method will parse the data file into a list of user
      * navigation entries. If there is an error parsing a particular line of the file it will continue processing the
@@ -102,6 +168,26 @@ public class UserNavigationUtil {
      */
     public static List<UserNavigationEntry> parseUserNavigationFile(String path, String delimiter)
             throws IOException {
+        return parseUserNavigationFile(path, delimiter, FULL_SAMPLE_RATE);
+    }
+
+    /**
+     * Given a path to a data file, a data delimiter and a user sample rate this method will parse the data file into a
+     * list of user navigation entries for the sampled users. A user is sampled by hashing its user key, so every entry
+     * of a sampled user is kept and the same users are sampled on every run. Malformed lines are always reported, the
+     * user key of a line is only sampled once the line has been parsed. When the delimiter has no regex characters and
+     * occurs exactly once in a line, between a non-empty user key and navigation entry, the line cannot be malformed
+     * and is discarded before it is split if its user is not sampled.
+     *
+     * @param path       the path of the data file to process.
+     * @param delimiter  the delimiter to parse each data line with.
+     * @param sampleRate the fraction of users to include, greater than 0 and at most 1.
+     * @return list of user navigation entries.
+     * @throws IOException if there is an error accessing or reading the data file.
+     * @see List
+     */
+    public static List<UserNavigationEntry> parseUserNavigationFile(String path, String delimiter, double sampleRate)
+            throws IOException {
         String defaultDelimiter = " ";
         // Validate parameters.
         if (path == null || path.isEmpty()) {
@@ -110,6 +196,7 @@ public class UserNavigationUtil {
         if (delimiter == null || delimiter.isEmpty()) {
             delimiter = defaultDelimiter;
         }
+        validateSampleRate(sampleRate);
 
         // Load data lines from file path.
         Stream<String> lines = Files.lines(Paths.get(path));
@@ -117,16 +204,86 @@ public class UserNavigationUtil {
         // Parse data lines into list of entries.
         final String finalDelimiter = delimiter;
         final AtomicInteger lineNumberCounter = new AtomicInteger(1);
+        final long sampleThreshold = getSampleThreshold(sampleRate);
+        final boolean sampling = sampleThreshold != getSampleThreshold(FULL_SAMPLE_RATE);
+        // Lines can only be discarded before splitting when the delimiter regex matches itself literally.
+        final int delimiterLength = delimiter.length();
+        final boolean literalDelimiter = delimiter.chars().noneMatch(c -> ".$|()[]{}^?*+\\".indexOf(c) >= 0);
         return lines.map(line -> {
+            int lineNumber = lineNumberCounter.getAndIncrement();
+            if (sampling && literalDelimiter) {
+                int userKeyEnd = line.indexOf(finalDelimiter);
+                if (userKeyEnd > 0 && userKeyEnd + delimiterLength < line.length()
+                        && line.indexOf(finalDelimiter, userKeyEnd + delimiterLength) < 0
+                        && !isUserSampled(line, 0, userKeyEnd, sampleThreshold)) {
+                    return null;
+                }
+            }
             UserNavigationEntry entry = new UserNavigationEntry()
-                    .lineNumber(lineNumberCounter.getAndIncrement())
+                    .lineNumber(lineNumber)
                     .rawLineData(line);
             String[] values = line.split(finalDelimiter);
             if (values.length != 2) {
                 return entry.exception(new FileLineParsingException("Invalid line format.", line)).error(true);
             }
-            return entry.userKey(values[0].trim()).navigationEntry(values[1].trim());
-        }).collect(Collectors.toList());
+            String userKey = values[0].trim();
+            if (sampling && !isUserSampled(userKey, 0, userKey.length(), sampleThreshold)) {
+                return null;
+            }
+            return entry.userKey(userKey).navigationEntry(values[1].trim());
+        }).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    /**
+     * Validates the given user sample rate.
+     *
+     * @param sampleRate the sample rate to validate.
+     */
+    private static void validateSampleRate(double sampleRate) {
+        if (!(sampleRate > 0 && sampleRate <= FULL_SAMPLE_RATE)) {
+            throw new InvalidParameterException("Invalid sample rate: " + sampleRate + ".");
+        }
+    }
+
+    /**
+     * Converts the given sample rate into the threshold that a 53 bit user key hash must be below to be sampled.
+     *
+     * @param sampleRate the fraction of users to include.
+     * @return the user key hash threshold.
+     */
+    private static long getSampleThreshold(double sampleRate) {
+        return (long) (sampleRate * (1L << 53));
+    }
+
+    /**
+     * Determines if the user key found in the given character range is sampled. Surrounding whitespace in the range is
+     * ignored so the result matches the trimmed user key. The range is hashed in place without allocating.
+     *
+     * @param data            the characters holding the user key.
+     * @param start           the start index of the user key, inclusive.
+     * @param end             the end index of the user key, exclusive.
+     * @param sampleThreshold the user key hash threshold from getSampleThreshold.
+     * @return true if the user is sampled.
+     */
+    private static boolean isUserSampled(CharSequence data, int start, int end, long sampleThreshold) {
+        while (start < end && data.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && data.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        // FNV-1a over the user key characters followed by the MurmurHash3 finalizer to spread the bits.
+        long hash = 0xcbf29ce484222325L;
+        for (int idx = start; idx < end; idx++) {
+            hash ^= data.charAt(idx);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (hash >>> 11) < sampleThreshold;
     }
 
 }
@@ -1,7 +1,9 @@
 package app.model;
 
 /**
- * Representation of the number of times a navigation path was visited.
+ * Representation of the number of times a navigation path was visited. When the visit count was taken from a sample of
+ * users the estimated visit count and its confidence interval are scaled to the full user population, otherwise they
+ * are equal to the visit count.
  *
  * @author Bradley Behnke
  * @since 1.0
@@ -9,6 +11,9 @@ package app.model;
 public class PathVisitCount {
     private int visitCount;
     private String path;
+    private double estimatedVisitCount;
+    private double estimatedVisitCountLower;
+    private double estimatedVisitCountUpper;
 
     /**
      * @return the current navigation path visit count.
@@ -24,6 +29,27 @@ public class PathVisitCount {
         return this.path;
     }
 
+    /**
+     * @return the current estimated navigation path visit count.
+     */
+    public double estimatedVisitCount() {
+        return this.estimatedVisitCount;
+    }
+
+    /**
+     * @return the current lower bound of the estimated navigation path visit count confidence interval.
+     */
+    public double estimatedVisitCountLower() {
+        return this.estimatedVisitCountLower;
+    }
+
+    /**
+     * @return the current upper bound of the estimated navigation path visit count confidence interval.
+     */
+    public double estimatedVisitCountUpper() {
+        return this.estimatedVisitCountUpper;
+    }
+
     /**
      * @param visitCount visitCount to set.
      * @return this instance of PathVisitCount.
@@ -42,6 +68,33 @@ public class PathVisitCount {
         return this;
     }
 
+    /**
+     * @param estimatedVisitCount estimatedVisitCount to set.
+     * @return this instance of PathVisitCount.
+     */
+    public PathVisitCount estimatedVisitCount(final double estimatedVisitCount) {
+        this.estimatedVisitCount = estimatedVisitCount;
+        return this;
+    }
+
+    /**
+     * @param estimatedVisitCountLower estimatedVisitCountLower to set.
+     * @return this instance of PathVisitCount.
+     */
+    public PathVisitCount estimatedVisitCountLower(final double estimatedVisitCountLower) {
+        this.estimatedVisitCountLower = estimatedVisitCountLower;
+        return this;
+    }
+
+    /**
+     * @param estimatedVisitCountUpper estimatedVisitCountUpper to set.
+     * @return this instance of PathVisitCount.
+     */
+    public PathVisitCount estimatedVisitCountUpper(final double estimatedVisitCountUpper) {
+        this.estimatedVisitCountUpper = estimatedVisitCountUpper;
+        return this;
+    }
+
     /**
      * Increments current visit count by 1.
      */
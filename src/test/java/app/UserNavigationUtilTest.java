@@ -2,10 +2,17 @@ package app;
 
 import app.model.PathVisitCount;
 import app.model.UserNavigationEntry;
+import app.model.UserNavigationList;
 import junit.framework.TestCase;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.InvalidParameterException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Tests the UserNavigationUtil class.
@@ -60,4 +67,178 @@ public class UserNavigationUtilTest extends TestCase {
 
         System.out.println("Completed testing UserNavigationUtil.getPathVisitCountsFromEntries.");
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests UserNavigationUtil.getPathVisitCountsFromLists with a full sample rate.
+     */
+    public void testGetPathVisitCountsFromListsFullSample() {
+        System.out.println("Testing UserNavigationUtil.getPathVisitCountsFromLists with a full sample rate.");
+
+        List<PathVisitCount> pathVisitCounts = UserNavigationUtil.getPathVisitCountsFromLists(
+                UserNavigationUtil.getUserNavigationLists(userNavigationEntryList), 3, 5, UserNavigationUtil.FULL_SAMPLE_RATE);
+        assertNotNull(pathVisitCounts);
+        assertEquals(3, pathVisitCounts.size());
+        assertEquals(2, pathVisitCounts.get(0).visitCount());
+        assertEquals("/ -> subscribers -> filter", pathVisitCounts.get(0).path());
+        pathVisitCounts.forEach(pathVisitCount -> {
+            assertEquals((double) pathVisitCount.visitCount(), pathVisitCount.estimatedVisitCount(), 0);
+            assertEquals((double) pathVisitCount.visitCount(), pathVisitCount.estimatedVisitCountLower(), 0);
+            assertEquals((double) pathVisitCount.visitCount(), pathVisitCount.estimatedVisitCountUpper(), 0);
+        });
+
+        System.out.println("Completed testing UserNavigationUtil.getPathVisitCountsFromLists with a full sample rate.");
+    }
+
+    /**
+     * Tests UserNavigationUtil.sampleUserNavigationEntries and UserNavigationUtil.getPathVisitCountsFromLists with a
+     * partial sample rate. At a sample rate of 0.88 users U1 and U2 are sampled and user U3 is not.
+     */
+    public void testGetPathVisitCountsFromListsPartialSample() {
+        System.out.println("Testing UserNavigationUtil.getPathVisitCountsFromLists with a partial sample rate.");
+
+        double sampleRate = 0.88;
+        List<UserNavigationEntry> sampledEntries =
+                UserNavigationUtil.sampleUserNavigationEntries(userNavigationEntryList, sampleRate);
+        assertEquals(7, sampledEntries.size());
+        sampledEntries.forEach(entry -> assertFalse("U3".equals(entry.userKey())));
+
+        List<PathVisitCount> pathVisitCounts = UserNavigationUtil.getPathVisitCountsFromLists(
+                UserNavigationUtil.getUserNavigationLists(sampledEntries), 3, 5, sampleRate);
+        assertNotNull(pathVisitCounts);
+        assertEquals(2, pathVisitCounts.size());
+
+        assertEquals("/ -> subscribers -> filter", pathVisitCounts.get(0).path());
+        assertEquals(2, pathVisitCounts.get(0).visitCount());
+        assertEquals(2 / 0.88, pathVisitCounts.get(0).estimatedVisitCount(), 0.000001);
+        double margin = 1.96 * Math.sqrt(2 * 0.12) / 0.88;
+        assertEquals(2.0, pathVisitCounts.get(0).estimatedVisitCountLower(), 0.000001);
+        assertEquals(2 / 0.88 + margin, pathVisitCounts.get(0).estimatedVisitCountUpper(), 0.000001);
+
+        assertEquals("subscribers -> filter -> export", pathVisitCounts.get(1).path());
+        assertEquals(1, pathVisitCounts.get(1).visitCount());
+        assertEquals(1 / 0.88, pathVisitCounts.get(1).estimatedVisitCount(), 0.000001);
+        margin = 1.96 * Math.sqrt(0.12) / 0.88;
+        assertEquals(1.0, pathVisitCounts.get(1).estimatedVisitCountLower(), 0.000001);
+        assertEquals(1 / 0.88 + margin, pathVisitCounts.get(1).estimatedVisitCountUpper(), 0.000001);
+
+        // The lower bound is only raised to the visit count when the interval reaches below it.
+        List<UserNavigationList> userNavigationLists = new ArrayList<>();
+        for (int userIdx = 0; userIdx < 20; userIdx++) {
+            UserNavigationList userNavigationList = new UserNavigationList("user" + userIdx);
+            userNavigationList.addNavigationEntry("/");
+            userNavigationLists.add(userNavigationList);
+        }
+        List<PathVisitCount> lowRatePathVisitCounts =
+                UserNavigationUtil.getPathVisitCountsFromLists(userNavigationLists, 1, 1, 0.5);
+        assertEquals(20, lowRatePathVisitCounts.get(0).visitCount());
+        assertEquals(40.0, lowRatePathVisitCounts.get(0).estimatedVisitCount(), 0.000001);
+        margin = 1.96 * Math.sqrt(20 * 0.5) / 0.5;
+        assertEquals(40 - margin, lowRatePathVisitCounts.get(0).estimatedVisitCountLower(), 0.000001);
+        assertEquals(40 + margin, lowRatePathVisitCounts.get(0).estimatedVisitCountUpper(), 0.000001);
+
+        try {
+            UserNavigationUtil.getPathVisitCountsFromLists(
+                    UserNavigationUtil.getUserNavigationLists(userNavigationEntryList), 3, 5, 0);
+            fail("Expected InvalidParameterException for sample rate of 0.");
+        } catch (InvalidParameterException e) {
+            // Expected.
+        }
+
+        System.out.println("Completed testing UserNavigationUtil.getPathVisitCountsFromLists with a partial sample rate.");
+    }
+
+    /**
+     * Tests UserNavigationUtil.parseUserNavigationFile with a partial sample rate. Every line of a sampled user must be
+     * kept, every line of an unsampled user must be dropped and the literal delimiter, regex delimiter and entry
+     * sampling must all sample the same users.
+     */
+    public void testParseUserNavigationFileSample() throws IOException {
+        System.out.println("Testing UserNavigationUtil.parseUserNavigationFile with a partial sample rate.");
+
+        double sampleRate = 0.1;
+        int userCount = 2000;
+        int linesPerUser = 3;
+        List<String> lines = new ArrayList<>();
+        for (int lineIdx = 0; lineIdx < linesPerUser; lineIdx++) {
+            for (int userIdx = 0; userIdx < userCount; userIdx++) {
+                lines.add("user" + userIdx + " page" + lineIdx);
+            }
+        }
+        String path = writeDataFile(lines);
+
+        List<UserNavigationEntry> allEntries = UserNavigationUtil.parseUserNavigationFile(path, " ");
+        assertEquals(userCount * linesPerUser, allEntries.size());
+
+        List<UserNavigationEntry> literalEntries = UserNavigationUtil.parseUserNavigationFile(path, " ", sampleRate);
+        Map<String, Integer> literalLineCounts = countLinesPerUser(literalEntries);
+        assertTrue(literalLineCounts.size() > 0);
+        assertTrue(literalLineCounts.size() < userCount);
+        literalLineCounts.values().forEach(lineCount -> assertEquals(linesPerUser, (int) lineCount));
+
+        List<UserNavigationEntry> regexEntries = UserNavigationUtil.parseUserNavigationFile(path, "[ ]", sampleRate);
+        assertEquals(literalLineCounts, countLinesPerUser(regexEntries));
+
+        List<UserNavigationEntry> sampledEntries = UserNavigationUtil.sampleUserNavigationEntries(allEntries, sampleRate);
+        assertEquals(literalLineCounts, countLinesPerUser(sampledEntries));
+
+        for (int entryIdx = 0; entryIdx < literalEntries.size(); entryIdx++) {
+            assertEquals(sampledEntries.get(entryIdx).lineNumber(), literalEntries.get(entryIdx).lineNumber());
+            assertEquals(sampledEntries.get(entryIdx).navigationEntry(), literalEntries.get(entryIdx).navigationEntry());
+        }
+
+        System.out.println("Completed testing UserNavigationUtil.parseUserNavigationFile with a partial sample rate.");
+    }
+
+    /**
+     * Tests UserNavigationUtil.parseUserNavigationFile reports every malformed line with a partial sample rate,
+     * regardless of how the delimiter is matched.
+     */
+    public void testParseUserNavigationFileSampleMalformedLines() throws IOException {
+        System.out.println("Testing UserNavigationUtil.parseUserNavigationFile malformed lines with a partial sample rate.");
+
+        int userCount = 100;
+        List<String> lines = new ArrayList<>();
+        for (int userIdx = 0; userIdx < userCount; userIdx++) {
+            lines.add("user" + userIdx + " a b");
+            lines.add("user" + userIdx + " ");
+        }
+        String path = writeDataFile(lines);
+
+        for (String delimiter : new String[]{" ", "[ ]"}) {
+            List<UserNavigationEntry> entries = UserNavigationUtil.parseUserNavigationFile(path, delimiter, 0.1);
+            assertEquals(userCount * 2, entries.size());
+            entries.forEach(entry -> {
+                assertTrue(entry.error());
+                assertNotNull(entry.exception());
+            });
+        }
+
+        System.out.println("Completed testing UserNavigationUtil.parseUserNavigationFile malformed lines with a partial sample rate.");
+    }
+
+    /**
+     * Writes the given lines to a temporary data file.
+     *
+     * @param lines the data lines to write.
+     * @return the path of the data file.
+     * @throws IOException if the data file could not be written.
+     */
+    private static String writeDataFile(List<String> lines) throws IOException {
+        File file = File.createTempFile("userdata", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), lines);
+        return file.getPath();
+    }
+
+    /**
+     * Counts the number of entries of each user key.
+     *
+     * @param entries the user navigation entries to count.
+     * @return map of user key to number of entries.
+     */
+    private static Map<String, Integer> countLinesPerUser(List<UserNavigationEntry> entries) {
+        Map<String, Integer> lineCounts = new HashMap<>();
+        entries.forEach(entry -> lineCounts.merge(entry.userKey(), 1, Integer::sum));
+        return lineCounts;
+    }
+}